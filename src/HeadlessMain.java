@@ -0,0 +1,353 @@
+import elevator.*;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Неинтерактивный запуск симуляции для автоматических замеров производительности.
+ *
+ * <p>Параметры задаются аргументами вида {@code --ключ=значение} или файлом
+ * {@code --config=путь} в формате {@link Properties}; аргументы командной строки
+ * переопределяют значения из файла:
+ * <ul>
+ *   <li>{@code elevators} - количество лифтов (по умолчанию 3)</li>
+ *   <li>{@code floors} - количество этажей, нумерация с 0 (по умолчанию 10)</li>
+ *   <li>{@code traffic} - поток пассажиров: {@code uniform}, {@code up_peak}, {@code down_peak}
+ *       или {@code file:путь} - файл со строками {@code секунда,откуда,куда}</li>
+ *   <li>{@code duration} - длительность симуляции в секундах модельного времени (по умолчанию 300)</li>
+ *   <li>{@code policy} - политика диспетчера: {@code destination} или {@code nearest}</li>
+ *   <li>{@code parking} - парковка свободных лифтов по прогнозу спроса (по умолчанию true)</li>
+ *   <li>{@code seed} - зерно генератора запросов (по умолчанию 1)</li>
+ *   <li>{@code format} - формат отчета: {@code json} или {@code csv}</li>
+ *   <li>{@code verbose} - выводить журнал работы лифтов в stderr (по умолчанию false)</li>
+ * </ul>
+ *
+ * <p>Программа работает без вопросов пользователю и печатает в stdout только отчет:
+ * пропускную способность, перцентили времени ожидания и загрузку каждого лифта.
+ * После {@code duration} новые запросы не поступают, а симуляция продолжается, пока лифты
+ * не заберут всех ожидающих пассажиров (не дольше {@value #DRAIN_LIMIT_SECONDS} с), и только
+ * затем считается время ожидания. В отчете указано, сколько пассажиров ждали лифт
+ * к концу {@code duration} ({@code unservedRequests}), сколько длилось дообслуживание
+ * ({@code drainSeconds}) и сколько пассажиров так и не дождались лифта ({@code strandedRequests}).
+ * Симуляция идет по модельным часам ({@link Simulation}), поэтому одинаковые параметры
+ * и {@code seed} дают одинаковый отчет, а время работы не зависит от {@code duration}.
+ */
+public class HeadlessMain {
+    private static final int DRAIN_LIMIT_SECONDS = 600;
+
+    public static void main(String[] args) {
+        Properties config;
+
+        try {
+            config = parseArgs(args);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[ERROR]: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Settings settings;
+        List<long[]> trace;
+
+        try {
+            settings = new Settings(config);
+            trace = settings.traceFile != null ? readTrace(settings.traceFile, settings.floors) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[ERROR]: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        PrintStream report = System.out;
+        System.setOut(settings.verbose ? System.err : new PrintStream(OutputStream.nullOutputStream()));
+
+        Simulation simulation = new Simulation(settings.floors - 1, settings.elevators);
+        simulation.getDispatcher().setDispatchPolicy(settings.policy);
+        simulation.getDispatcher().setParkingEnabled(settings.parking);
+
+        if (trace == null) {
+            simulation.useGenerator(settings.traffic, settings.seed);
+        } else {
+            for (long[] call : trace) {
+                simulation.scheduleCall(call[0], (int) call[1], (int) call[2]);
+            }
+        }
+
+        TelemetrySnapshot snapshot = simulation.run((long) (settings.duration * 1000));
+        long drainMillis = simulation.drain(DRAIN_LIMIT_SECONDS * 1000L);
+        TelemetrySnapshot drained = simulation.getDispatcher().getSnapshot();
+
+        if (drained.getUnservedRequests() > 0) {
+            System.err.println("[WARN]: " + drained.getUnservedRequests() + " пассажиров не дождались лифта за "
+                    + DRAIN_LIMIT_SECONDS + " с после окончания симуляции");
+        }
+
+        report.print(settings.csv
+                ? toCsv(settings, snapshot, drained, drainMillis)
+                : toJson(settings, snapshot, drained, drainMillis));
+        report.flush();
+    }
+
+    private static Properties parseArgs(String[] args) throws IOException {
+        Properties config = new Properties();
+        Properties overrides = new Properties();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("неизвестный аргумент " + arg + " (ожидается --ключ=значение)");
+            }
+
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            if (key.equals("config")) {
+                try (FileReader reader = new FileReader(value)) {
+                    config.load(reader);
+                }
+            } else {
+                overrides.setProperty(key, value);
+            }
+        }
+
+        config.putAll(overrides);
+        return config;
+    }
+
+    private static List<long[]> readTrace(String path, int floors) throws IOException {
+        List<long[]> trace = new ArrayList<>();
+        int lineNumber = 0;
+
+        for (String line : Files.readAllLines(Paths.get(path))) {
+            lineNumber++;
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.split(",");
+
+            try {
+                long time = (long) (Double.parseDouble(parts[0].trim()) * 1000);
+                int from = Integer.parseInt(parts[1].trim());
+                int to = Integer.parseInt(parts[2].trim());
+
+                if (from == to || from < 0 || to < 0 || from >= floors || to >= floors) {
+                    throw new IllegalArgumentException();
+                }
+
+                trace.add(new long[]{time, from, to});
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(path + ":" + lineNumber + ": ожидается секунда,откуда,куда");
+            }
+        }
+
+        trace.sort((a, b) -> Long.compare(a[0], b[0]));
+        return trace;
+    }
+
+    /**
+     * Счетчики запросов, пропускная способность и загрузка лифтов берутся из {@code snapshot}
+     * на конец {@code duration}, время ожидания - из {@code drained} после дообслуживания.
+     */
+    private static String toJson(Settings settings, TelemetrySnapshot snapshot, TelemetrySnapshot drained,
+                                 long drainMillis) {
+        StringBuilder json = new StringBuilder();
+
+        json.append("{\n");
+        json.append("  \"elevators\": ").append(settings.elevators).append(",\n");
+        json.append("  \"floors\": ").append(settings.floors).append(",\n");
+        json.append("  \"traffic\": \"").append(settings.trafficName.replace("\\", "\\\\").replace("\"", "\\\"")).append("\",\n");
+        json.append("  \"policy\": \"").append(settings.policy.name().toLowerCase(Locale.ROOT)).append("\",\n");
+        json.append("  \"parking\": ").append(settings.parking).append(",\n");
+        json.append("  \"seed\": ").append(settings.seed).append(",\n");
+        json.append("  \"durationSeconds\": ").append(format(settings.duration)).append(",\n");
+        json.append("  \"requests\": ").append(snapshot.getRequests()).append(",\n");
+        json.append("  \"hallCalls\": ").append(snapshot.getHallCalls()).append(",\n");
+        json.append("  \"coalescedRequests\": ").append(snapshot.getCoalescedRequests()).append(",\n");
+        json.append("  \"pickups\": ").append(snapshot.getPickups()).append(",\n");
+        json.append("  \"unservedRequests\": ").append(snapshot.getUnservedRequests()).append(",\n");
+        json.append("  \"throughputPerMinute\": ").append(format(throughput(settings, snapshot))).append(",\n");
+        json.append("  \"drainSeconds\": ").append(format(drainMillis / 1000.0)).append(",\n");
+        json.append("  \"strandedRequests\": ").append(drained.getUnservedRequests()).append(",\n");
+        json.append("  \"waitAvgSeconds\": ").append(format(drained.getAverageWaitSeconds())).append(",\n");
+        json.append("  \"waitP50Seconds\": ").append(format(drained.getWaitP50Seconds())).append(",\n");
+        json.append("  \"waitP90Seconds\": ").append(format(drained.getWaitP90Seconds())).append(",\n");
+        json.append("  \"waitP99Seconds\": ").append(format(drained.getWaitP99Seconds())).append(",\n");
+        json.append("  \"cars\": [");
+
+        List<TelemetrySnapshot.ElevatorState> elevators = snapshot.getElevators();
+        for (int i = 0; i < elevators.size(); i++) {
+            TelemetrySnapshot.ElevatorState elevator = elevators.get(i);
+
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"id\": ").append(elevator.getId())
+                    .append(", \"utilization\": ").append(format(elevator.getUtilization()))
+                    .append(", \"stops\": ").append(elevator.getStops())
+                    .append(", \"floorsTravelled\": ").append(elevator.getFloorsTravelled())
+                    .append("}");
+        }
+
+        json.append(elevators.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static String toCsv(Settings settings, TelemetrySnapshot snapshot, TelemetrySnapshot drained,
+                                long drainMillis) {
+        StringBuilder header = new StringBuilder("elevators,floors,traffic,policy,parking,seed,durationSeconds,"
+                + "requests,hallCalls,coalescedRequests,pickups,unservedRequests,throughputPerMinute,"
+                + "drainSeconds,strandedRequests,waitAvgSeconds,waitP50Seconds,waitP90Seconds,waitP99Seconds");
+        StringBuilder row = new StringBuilder();
+
+        row.append(settings.elevators).append(',')
+                .append(settings.floors).append(',')
+                .append(settings.trafficName.replace(",", ";")).append(',')
+                .append(settings.policy.name().toLowerCase(Locale.ROOT)).append(',')
+                .append(settings.parking).append(',')
+                .append(settings.seed).append(',')
+                .append(format(settings.duration)).append(',')
+                .append(snapshot.getRequests()).append(',')
+                .append(snapshot.getHallCalls()).append(',')
+                .append(snapshot.getCoalescedRequests()).append(',')
+                .append(snapshot.getPickups()).append(',')
+                .append(snapshot.getUnservedRequests()).append(',')
+                .append(format(throughput(settings, snapshot))).append(',')
+                .append(format(drainMillis / 1000.0)).append(',')
+                .append(drained.getUnservedRequests()).append(',')
+                .append(format(drained.getAverageWaitSeconds())).append(',')
+                .append(format(drained.getWaitP50Seconds())).append(',')
+                .append(format(drained.getWaitP90Seconds())).append(',')
+                .append(format(drained.getWaitP99Seconds()));
+
+        for (TelemetrySnapshot.ElevatorState elevator : snapshot.getElevators()) {
+            header.append(",car").append(elevator.getId()).append("Utilization");
+            row.append(',').append(format(elevator.getUtilization()));
+        }
+
+        return header + "\n" + row + "\n";
+    }
+
+    /**
+     * Пассажиров, забранных лифтами, в минуту модельного времени.
+     */
+    private static double throughput(Settings settings, TelemetrySnapshot snapshot) {
+        return snapshot.getPickups() * 60.0 / settings.duration;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static class Settings {
+        final int elevators;
+        final int floors;
+        final String trafficName;
+        final PassengerRequestGenerator.Traffic traffic;
+        final String traceFile;
+        final double duration;
+        final DispatchPolicy policy;
+        final boolean parking;
+        final long seed;
+        final boolean csv;
+        final boolean verbose;
+
+        Settings(Properties config) {
+            elevators = intValue(config, "elevators", 3, 1, 100);
+            floors = intValue(config, "floors", 10, 2, 1000);
+            trafficName = config.getProperty("traffic", "uniform").trim();
+            duration = doubleValue(config, "duration", 300);
+            seed = Long.parseLong(config.getProperty("seed", "1").trim());
+            parking = booleanValue(config, "parking", true);
+            verbose = booleanValue(config, "verbose", false);
+
+            if (trafficName.startsWith("file:")) {
+                traceFile = trafficName.substring("file:".length());
+                traffic = null;
+            } else {
+                traceFile = null;
+                traffic = enumValue(PassengerRequestGenerator.Traffic.class, "traffic", trafficName);
+            }
+
+            policy = enumValue(DispatchPolicy.class, "policy", config.getProperty("policy", "destination").trim());
+
+            String format = config.getProperty("format", "json").trim().toLowerCase(Locale.ROOT);
+            if (!format.equals("json") && !format.equals("csv")) {
+                throw new IllegalArgumentException("format: ожидается json или csv, получено " + format);
+            }
+            csv = format.equals("csv");
+
+            for (Object key : config.keySet()) {
+                if (!KEYS.contains(key)) {
+                    throw new IllegalArgumentException("неизвестный параметр " + key);
+                }
+            }
+        }
+
+        private static final List<String> KEYS = List.of("elevators", "floors", "traffic", "duration", "policy",
+                "parking", "seed", "format", "verbose");
+
+        private static int intValue(Properties config, String key, int defaultValue, int min, int max) {
+            String value = config.getProperty(key);
+            if (value == null) {
+                return defaultValue;
+            }
+
+            try {
+                int result = Integer.parseInt(value.trim());
+                if (result >= min && result <= max) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // сообщение об ошибке ниже
+            }
+            throw new IllegalArgumentException(key + ": ожидается число от " + min + " до " + max + ", получено " + value);
+        }
+
+        private static double doubleValue(Properties config, String key, double defaultValue) {
+            String value = config.getProperty(key);
+            if (value == null) {
+                return defaultValue;
+            }
+
+            try {
+                double result = Double.parseDouble(value.trim());
+                if (result > 0) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // сообщение об ошибке ниже
+            }
+            throw new IllegalArgumentException(key + ": ожидается положительное число, получено " + value);
+        }
+
+        private static boolean booleanValue(Properties config, String key, boolean defaultValue) {
+            String value = config.getProperty(key);
+            if (value == null) {
+                return defaultValue;
+            }
+
+            value = value.trim().toLowerCase(Locale.ROOT);
+            if (!value.equals("true") && !value.equals("false")) {
+                throw new IllegalArgumentException(key + ": ожидается true или false, получено " + value);
+            }
+            return Boolean.parseBoolean(value);
+        }
+
+        private static <E extends Enum<E>> E enumValue(Class<E> type, String key, String value) {
+            try {
+                return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(key + ": неизвестное значение " + value);
+            }
+        }
+    }
+}
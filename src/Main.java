@@ -32,6 +32,7 @@ public class Main {
         for (int i = 0; i < elevatorCount; i++) {
             dispatcher.addElevator(new Elevator());
         }
+        dispatcher.registerMBeans();
 
         System.out.println("\n[!] ЗАПУСК..");
 
@@ -0,0 +1,84 @@
+package elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Класс DemandForecaster оценивает интенсивность вызовов на каждом этаже
+ * по истории последних запросов пассажиров.
+ *
+ * <p>Для каждого этажа и направления хранится счетчик с экспоненциальным затуханием:
+ * каждый вызов добавляет единицу, а накопленное значение уменьшается вдвое
+ * за каждые {@code halfLifeMillis} миллисекунд. Так недавние вызовы весят больше старых,
+ * и прогноз сам подстраивается под смену потока пассажиров (например, утренний час пик в холле).
+ *
+ * <p>Диспетчер использует прогноз, чтобы отправлять свободные лифты
+ * на этажи с наибольшим ожидаемым спросом. Спрос в направлении, которое уже обслуживает
+ * проезжающий мимо лифт, при этом не учитывается.
+ *
+ * @see Dispatcher
+ * @see Direction
+ */
+class DemandForecaster {
+    private final int minFloor;
+    private final double[][] counters;
+    private final long[][] updatedAt;
+    private final double decayPerMillis;
+
+    DemandForecaster(int minFloor, int maxFloor, long halfLifeMillis) {
+        this.minFloor = minFloor;
+        this.counters = new double[maxFloor - minFloor + 1][2];
+        this.updatedAt = new long[maxFloor - minFloor + 1][2];
+        this.decayPerMillis = Math.log(2) / halfLifeMillis;
+    }
+
+    synchronized void record(int floor, Direction direction, long timeMillis) {
+        int i = floor - minFloor;
+        int d = index(direction);
+
+        if (i < 0 || i >= counters.length) {
+            return;
+        }
+
+        counters[i][d] = decayed(i, d, timeMillis) + 1;
+        updatedAt[i][d] = timeMillis;
+    }
+
+    /**
+     * Возвращает этажи, спрос на которых не ниже {@code threshold},
+     * в порядке убывания спроса. Спрос в направлении, для которого {@code covered}
+     * возвращает {@code true}, не учитывается.
+     */
+    synchronized List<Integer> rankFloors(long timeMillis, double threshold, BiPredicate<Integer, Direction> covered) {
+        List<Integer> floors = new ArrayList<>();
+        double[] demand = new double[counters.length];
+
+        for (int i = 0; i < counters.length; i++) {
+            int floor = i + minFloor;
+
+            if (!covered.test(floor, Direction.DOWN)) {
+                demand[i] += decayed(i, index(Direction.DOWN), timeMillis);
+            }
+            if (!covered.test(floor, Direction.UP)) {
+                demand[i] += decayed(i, index(Direction.UP), timeMillis);
+            }
+
+            if (demand[i] >= threshold) {
+                floors.add(floor);
+            }
+        }
+
+        floors.sort((a, b) -> Double.compare(demand[b - minFloor], demand[a - minFloor]));
+        return floors;
+    }
+
+    private double decayed(int i, int d, long timeMillis) {
+        long elapsed = Math.max(0, timeMillis - updatedAt[i][d]);
+        return counters[i][d] * Math.exp(-decayPerMillis * elapsed);
+    }
+
+    private static int index(Direction direction) {
+        return direction == Direction.UP ? 1 : 0;
+    }
+}
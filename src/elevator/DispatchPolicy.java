@@ -0,0 +1,19 @@
+package elevator;
+
+/**
+ * Политика распределения вызовов между лифтами.
+ *
+ * @see Dispatcher#setDispatchPolicy(DispatchPolicy)
+ */
+public enum DispatchPolicy {
+    /**
+     * все пассажиры вызова едут в одном лифте, выбирается ближайший подходящий лифт
+     */
+    NEAREST,
+
+    /**
+     * пассажиры группируются по целевым этажам, группа назначается лифту,
+     * который уже останавливается на этих или соседних этажах
+     */
+    DESTINATION
+}
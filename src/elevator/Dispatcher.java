@@ -1,9 +1,16 @@
 package elevator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
 
 /**
  * Класс Dispatcher представляет собой центральный диспетчер лифтовой системы,
@@ -12,6 +19,13 @@ import java.util.Queue;
  * <p>Основные функции диспетчера:
  * <ul>
  *   <li>Прием и очередь запросов пассажиров на вызов лифта</li>
+ *   <li>Объединение запросов с одного этажа в одном направлении в общий вызов ({@link HallCall}):
+ *       новый вызов ждет в очереди {@link #COALESCING_WINDOW} мс, а запросы, поступившие после
+ *       назначения лифта, присоединяются к уже едущему лифту без повторной оценки</li>
+ *   <li>Группировка пассажиров с одинаковыми и соседними целевыми этажами в один лифт</li>
+ *   <li>Прогноз спроса по этажам и парковка свободных лифтов там, где вероятен следующий вызов</li>
+ *   <li>Учет времени ожидания пассажиров до прибытия лифта</li>
+ *   <li>Телеметрия без блокировок: срез состояния ({@link #getSnapshot()}) и JMX</li>
  *   <li>Выбор оптимального лифта для каждого запроса на основе алгоритма оценки</li>
  *   <li>Координация работы нескольких лифтов одновременно</li>
  *   <li>Мониторинг состояния системы и очереди запросов</li>
@@ -22,32 +36,106 @@ import java.util.Queue;
  *
  * @see Elevator
  * @see PassengerRequest
+ * @see HallCall
+ * @see DemandForecaster
+ * @see Telemetry
  * @see Status
  * @see Direction
  */
 
  public class Dispatcher implements Runnable {
     private List<Elevator> elevators;
-    private Queue<PassengerRequest> passengerRequests;
+    private Queue<HallCall> hallCalls;
+    private Map<Integer, HallCall> pendingCalls;
     private Thread management;
     private volatile boolean launch = true;
+    private volatile boolean parkingEnabled = true;
+    private volatile DispatchPolicy dispatchPolicy = DispatchPolicy.DESTINATION;
     private final Object lock = new Object();
+    private final DemandForecaster forecaster;
+    private final Map<Elevator, List<PassengerRequest>> pickups;
+    private final Telemetry telemetry;
+    private final LongSupplier clock;
+    private TelemetryMonitor monitor;
+    private long lastParkingCheck;
+
+    private static final int MIN_FLOOR = 0;
+    private static final int MAX_FLOOR = 9;
+    private static final int TARGET_GROUP_GAP = 1;
+    private static final long COALESCING_WINDOW = 400;
+    private static final long DEMAND_HALF_LIFE = 60000;
+    private static final double PARKING_DEMAND_THRESHOLD = 0.5;
+    private static final long PARKING_IDLE_DELAY = 5000;
+    private static final long PARKING_CHECK_INTERVAL = 1000;
 
     public Dispatcher() {
-        this.elevators = new ArrayList<>();
-        this.passengerRequests = new LinkedList<>();
+        this(MAX_FLOOR);
+    }
+
+    /**
+     * @param maxFloor верхний этаж здания (нижний всегда {@value #MIN_FLOOR})
+     */
+    public Dispatcher(int maxFloor) {
+        this(maxFloor, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock источник текущего времени в миллисекундах; {@link Simulation}
+     *              передает модельные часы
+     */
+    Dispatcher(int maxFloor, LongSupplier clock) {
+        this.clock = clock;
+        this.elevators = new CopyOnWriteArrayList<>();
+        this.hallCalls = new LinkedList<>();
+        this.pendingCalls = new HashMap<>();
+        this.forecaster = new DemandForecaster(MIN_FLOOR, maxFloor, DEMAND_HALF_LIFE);
+        this.pickups = new HashMap<>();
+        this.telemetry = new Telemetry(clock);
         this.management = new Thread(this, "Dispatcher");
     }
 
     public void addElevator(Elevator elevator) {
-        elevators.add(elevator);
+        synchronized (elevators) {
+            elevators.add(elevator);
+            elevator.setDispatcher(this);
+
+            if (monitor != null) {
+                try {
+                    monitor.registerElevator(elevator);
+                } catch (JMException e) {
+                    System.out.println("[ERROR]: Не удалось зарегистрировать JMX-бин лифта #"
+                            + elevator.getId() + ": " + e.getMessage());
+                }
+            }
+        }
         System.out.println("Добавлен лифт #" + elevator.getId());
     }
 
     public void callElevator(int floorCall, int floorTarget) {
         synchronized (lock) {
-            PassengerRequest request = new PassengerRequest(floorCall, floorTarget);
-            passengerRequests.add(request);
+            PassengerRequest request = new PassengerRequest(floorCall, floorTarget, clock.getAsLong());
+            forecaster.record(floorCall, request.getDirection(), request.getTimeOfCreating());
+            telemetry.requestReceived(request.getTimeOfCreating());
+
+            if (joinAssignedCall(request)) {
+                telemetry.hallCallCoalesced();
+                System.out.println("Вызов: " + floorCall + " → " + floorTarget + " (присоединён к назначенному лифту)");
+                return;
+            }
+
+            HallCall hallCall = pendingCalls.get(HallCall.key(floorCall, request.getDirection()));
+
+            if (hallCall != null) {
+                hallCall.add(request);
+                telemetry.hallCallCoalesced();
+                System.out.println("Вызов: " + floorCall + " → " + floorTarget + " (объединён с " + hallCall + ")");
+                return;
+            }
+
+            hallCall = new HallCall(request);
+            hallCalls.add(hallCall);
+            pendingCalls.put(hallCall.key(), hallCall);
+            telemetry.hallCallQueued();
             System.out.println("Вызов: " + floorCall + " → " + floorTarget);
             lock.notifyAll();
         }
@@ -75,11 +163,14 @@ import java.util.Queue;
     public void run() {
         while (launch) {
             try {
-                PassengerRequest request = waitForRequest();
+                HallCall hallCall = waitForRequest();
 
-                if (request != null) {
-                    processRequest(request);
+                if (hallCall != null) {
+                    processRequest(hallCall);
+                } else {
+                    parkIdleElevators();
                 }
+                recallForWaitingPassengers();
 
             } catch (InterruptedException e) {
                 break;
@@ -87,39 +178,151 @@ import java.util.Queue;
         }
     }
 
-    private PassengerRequest waitForRequest() throws InterruptedException {
+    private HallCall waitForRequest() throws InterruptedException {
         synchronized (lock) {
-            while (passengerRequests.isEmpty() && launch) {
+            if (hallCalls.isEmpty() && launch) {
                 lock.wait(100);
+            } else if (!hallCalls.isEmpty() && launch) {
+                long remaining = hallCalls.peek().getCreatedAt() + COALESCING_WINDOW - clock.getAsLong();
+                if (remaining > 0) {
+                    lock.wait(remaining);
+                }
             }
 
-            if (!passengerRequests.isEmpty()) {
-                return passengerRequests.poll();
-            }
+            return takeHallCall();
+        }
+    }
+
+    /**
+     * Один шаг диспетчера без ожидания: обрабатывает все вызовы в очереди
+     * и паркует свободные лифты. Используется {@link Simulation} вместо потока диспетчера.
+     */
+    void step() {
+        HallCall hallCall;
 
+        while ((hallCall = nextHallCall()) != null) {
+            processRequest(hallCall);
+        }
+        parkIdleElevators();
+        recallForWaitingPassengers();
+    }
+
+    private HallCall nextHallCall() {
+        synchronized (lock) {
+            return takeHallCall();
+        }
+    }
+
+    /**
+     * Забирает первый вызов из очереди, если с его создания прошло
+     * {@link #COALESCING_WINDOW} мс: за это время к нему присоединяются
+     * запросы пассажиров, подошедших следом.
+     */
+    private HallCall takeHallCall() {
+        if (hallCalls.isEmpty() || hallCalls.peek().getCreatedAt() + COALESCING_WINDOW > clock.getAsLong()) {
             return null;
         }
+
+        HallCall hallCall = hallCalls.poll();
+        pendingCalls.remove(hallCall.key());
+        telemetry.hallCallTaken();
+        return hallCall;
     }
 
-    private void processRequest(PassengerRequest request) {
-        System.out.println("Обработка: " + request);
+    /**
+     * Присоединяет запрос к лифту, который уже назначен на этот этаж и направление,
+     * но еще не прибыл. При политике {@link DispatchPolicy#DESTINATION} лифт подходит,
+     * только если он уже останавливается на целевом или соседнем этаже.
+     */
+    private boolean joinAssignedCall(PassengerRequest request) {
+        int target = request.getFloorTarget();
+        Elevator assigned = null;
 
-        Elevator bestElevator = findBestElevator(request);
+        synchronized (pickups) {
+            for (Elevator elevator : elevators) {
+                if (!waitsFor(elevator, request)) {
+                    continue;
+                }
 
-        if (bestElevator != null) {
+                Set<Integer> floors = elevator.getFloors();
+                if (dispatchPolicy != DispatchPolicy.DESTINATION || floors.contains(target)
+                        || floors.contains(target - TARGET_GROUP_GAP) || floors.contains(target + TARGET_GROUP_GAP)) {
+                    assigned = elevator;
+                    break;
+                }
+            }
 
-            bestElevator.callToFloor(request.getFloorCall());
+            if (assigned == null) {
+                return false;
+            }
+            pickups.get(assigned).add(request);
+        }
 
+        assigned.addTargetFloor(target);
+        return true;
+    }
 
-            bestElevator.addTargetFloor(request.getFloorTarget());
+    private boolean waitsFor(Elevator elevator, PassengerRequest request) {
+        List<PassengerRequest> waiting = pickups.get(elevator);
+        if (waiting == null || !elevator.getFloors().contains(request.getFloorCall())) {
+            return false;
+        }
 
-            System.out.println("Назначен лифт #" + bestElevator.getId() + " для " + request);
-        } else {
-            System.out.println("Нет подходящего лифта для " + request);
+        for (PassengerRequest other : waiting) {
+            if (other.getFloorCall() == request.getFloorCall() && other.getDirection() == request.getDirection()) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private Elevator findBestElevator(PassengerRequest request) {
+    long getUnservedRequests() {
+        return telemetry.getRequests() - telemetry.getPickups();
+    }
+
+    long currentTimeMillis() {
+        return clock.getAsLong();
+    }
+
+    private void processRequest(HallCall hallCall) {
+        System.out.println("Обработка: " + hallCall);
+
+        List<Elevator> called = new ArrayList<>();
+
+        int groupGap = dispatchPolicy == DispatchPolicy.DESTINATION ? TARGET_GROUP_GAP : Integer.MAX_VALUE;
+
+        for (Set<Integer> targets : hallCall.groupTargets(groupGap)) {
+            Elevator bestElevator = findBestElevator(hallCall, targets);
+
+            if (bestElevator == null) {
+                System.out.println("Нет подходящего лифта для " + hallCall);
+                return;
+            }
+
+            if (!called.contains(bestElevator)) {
+                bestElevator.callToFloor(hallCall.getFloorCall());
+                called.add(bestElevator);
+            }
+
+            for (int target : targets) {
+                bestElevator.addTargetFloor(target);
+            }
+
+            synchronized (pickups) {
+                List<PassengerRequest> waiting = pickups.computeIfAbsent(bestElevator, e -> new ArrayList<>());
+                for (PassengerRequest request : hallCall.getRequests()) {
+                    if (targets.contains(request.getFloorTarget())) {
+                        waiting.add(request);
+                    }
+                }
+            }
+
+            System.out.println("Назначен лифт #" + bestElevator.getId() + " для " + hallCall
+                    + " → " + targets);
+        }
+    }
+
+    private Elevator findBestElevator(HallCall hallCall, Set<Integer> targets) {
         if (elevators.isEmpty()) {
             return null;
         }
@@ -128,7 +331,7 @@ import java.util.Queue;
         int bestScore = Integer.MAX_VALUE;
 
         for (Elevator elevator : elevators) {
-            int score = calculateScore(elevator, request);
+            int score = calculateScore(elevator, hallCall, targets);
 
             if (score < bestScore) {
                 bestScore = score;
@@ -139,47 +342,263 @@ import java.util.Queue;
         return bestElevator;
     }
 
-    private int calculateScore(Elevator elevator, PassengerRequest request) {
-        int distance = Math.abs(elevator.getCurrentFloor() - request.getFloorCall());
+    private int calculateScore(Elevator elevator, HallCall hallCall, Set<Integer> targets) {
+        int distance = Math.abs(elevator.getCurrentFloor() - hallCall.getFloorCall());
         int score = distance * 10;
 
-        if (elevator.getStatus() == Status.STOPPED &&
+        // лифт, едущий на парковку, свободен: новый вызов сразу отменяет парковку
+        boolean parking = elevator.getParkingFloor() != null && elevator.getFloors().isEmpty();
+
+        if (parking || elevator.getStatus() == Status.STOPPED &&
                 elevator.getDirection() == Direction.NO_ACTIVE) {
             score -= 50;
         }
 
-        if (elevator.getDirection() == request.getDirection()) {
+        if (!parking && elevator.getDirection() == hallCall.getDirection()) {
             if (elevator.getDirection() == Direction.UP &&
-                    request.getFloorCall() >= elevator.getCurrentFloor()) {
+                    hallCall.getFloorCall() >= elevator.getCurrentFloor()) {
                 score -= 30;
             } else if (elevator.getDirection() == Direction.DOWN &&
-                    request.getFloorCall() <= elevator.getCurrentFloor()) {
+                    hallCall.getFloorCall() <= elevator.getCurrentFloor()) {
                 score -= 30;
             }
         }
 
-        score += elevator.getFloors().size() * 5;
+        Set<Integer> floors = elevator.getFloors();
+
+        if (dispatchPolicy != DispatchPolicy.DESTINATION) {
+            return score + floors.size() * 5;
+        }
+
+        // лифт, который уже останавливается на этаже вызова или на целевых этажах,
+        // не делает лишних остановок
+        if (floors.contains(hallCall.getFloorCall())) {
+            score -= 20;
+        }
+
+        for (int target : targets) {
+            if (floors.contains(target)) {
+                score -= 15;
+            } else if (floors.contains(target - TARGET_GROUP_GAP) || floors.contains(target + TARGET_GROUP_GAP)) {
+                score -= 5;
+            }
+        }
+
+        score += floors.size() * 5;
 
         return score;
     }
 
-    public void showStatus() {
-        synchronized (lock) {
-            System.out.println("\n\\/\\/\\/\\ СТАТУС \\/\\/\\/\\");
-            System.out.println("[i] Запросов в очереди: " + passengerRequests.size());
+    /**
+     * Вызывается лифтом после остановки на этаже: пассажиры, ожидавшие этот лифт
+     * на этаже {@code floor}, считаются забранными.
+     */
+    void elevatorArrived(Elevator elevator, int floor) {
+        board(elevator, floor);
+    }
 
-            for (Elevator elevator : elevators) {
-                System.out.println("Лифт #" + elevator.getId() +
-                        " на " + elevator.getCurrentFloor() +
-                        " этаже, " + elevator.getStatus());
+    /**
+     * Вызывается лифтом перед закрытием дверей: пассажиры, назначенные этому лифту
+     * на этаже {@code floor}, пока двери были открыты, считаются забранными.
+     */
+    void elevatorDeparted(Elevator elevator, int floor) {
+        board(elevator, floor);
+    }
+
+    private void board(Elevator elevator, int floor) {
+        long now = clock.getAsLong();
+
+        synchronized (pickups) {
+            List<PassengerRequest> waiting = pickups.get(elevator);
+            if (waiting == null) {
+                return;
             }
-            System.out.println("\\/\\/\\/\\\n");
+
+            waiting.removeIf(request -> {
+                if (request.getFloorCall() != floor) {
+                    return false;
+                }
+                telemetry.pickedUp(now - request.getTimeOfCreating());
+                return true;
+            });
         }
     }
 
-    public int getQueueSize() {
-        synchronized (lock) {
-            return passengerRequests.size();
+    /**
+     * Отправляет лифты, простаивающие дольше {@link #PARKING_IDLE_DELAY}, на этажи
+     * с наибольшим прогнозируемым спросом. Каждый этаж занимает не больше одного лифта,
+     * а на этаж назначается ближайший к нему свободный лифт. Спрос вверх на этаже не учитывается,
+     * если ниже него вверх уже едет лифт, а спрос вниз - если выше него вниз едет лифт.
+     */
+    private void parkIdleElevators() {
+        long now = clock.getAsLong();
+
+        if (!parkingEnabled || now - lastParkingCheck < PARKING_CHECK_INTERVAL) {
+            return;
+        }
+        lastParkingCheck = now;
+
+        List<Elevator> free = new ArrayList<>();
+        Set<Integer> covered = new HashSet<>();
+
+        for (Elevator elevator : elevators) {
+            Integer parking = elevator.getParkingFloor();
+
+            if (parking != null) {
+                covered.add(parking);
+            } else if (elevator.isIdle()) {
+                if (elevator.getIdleMillis() >= PARKING_IDLE_DELAY) {
+                    free.add(elevator);
+                } else {
+                    covered.add(elevator.getCurrentFloor());
+                }
+            }
+        }
+
+        for (int floor : forecaster.rankFloors(now, PARKING_DEMAND_THRESHOLD, this::isPassedBy)) {
+            if (free.isEmpty()) {
+                break;
+            }
+            if (covered.contains(floor)) {
+                continue;
+            }
+
+            Elevator nearest = free.get(0);
+            for (Elevator elevator : free) {
+                if (Math.abs(elevator.getCurrentFloor() - floor) < Math.abs(nearest.getCurrentFloor() - floor)) {
+                    nearest = elevator;
+                }
+            }
+
+            free.remove(nearest);
+            covered.add(floor);
+
+            if (nearest.getCurrentFloor() != floor) {
+                nearest.parkAt(floor);
+            }
+        }
+    }
+
+    /**
+     * Снова вызывает лифт на этаж, где его ждут назначенные ему пассажиры,
+     * если этого этажа нет среди остановок лифта. Так бывает, когда вызов назначен
+     * в тот момент, когда лифт уже закрывает двери на этаже вызова.
+     */
+    private void recallForWaitingPassengers() {
+        List<int[]> recalls = new ArrayList<>();
+
+        synchronized (pickups) {
+            for (int i = 0; i < elevators.size(); i++) {
+                Elevator elevator = elevators.get(i);
+                List<PassengerRequest> waiting = pickups.get(elevator);
+                if (waiting == null) {
+                    continue;
+                }
+
+                for (PassengerRequest request : waiting) {
+                    if (!elevator.getFloors().contains(request.getFloorCall())) {
+                        recalls.add(new int[]{i, request.getFloorCall()});
+                    }
+                }
+            }
+        }
+
+        for (int[] recall : recalls) {
+            Elevator elevator = elevators.get(recall[0]);
+            if (!elevator.getFloors().contains(recall[1])) {
+                elevator.callToFloor(recall[1]);
+            }
         }
     }
+
+    /**
+     * Проезжает ли мимо этажа лифт, который по пути заберет вызов в направлении {@code direction}.
+     */
+    private boolean isPassedBy(int floor, Direction direction) {
+        for (Elevator elevator : elevators) {
+            if (elevator.getStatus() != Status.MOVING || elevator.getDirection() != direction) {
+                continue;
+            }
+
+            if (direction == Direction.UP && elevator.getCurrentFloor() < floor
+                    || direction == Direction.DOWN && elevator.getCurrentFloor() > floor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setParkingEnabled(boolean parkingEnabled) {
+        this.parkingEnabled = parkingEnabled;
+    }
+
+    public void setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+        this.dispatchPolicy = dispatchPolicy;
+    }
+
+    /**
+     * Среднее время от вызова до прибытия лифта за этажом вызова, в секундах.
+     */
+    public double getAverageWaitSeconds() {
+        return telemetry.getAverageWaitSeconds();
+    }
+
+    /**
+     * Возвращает срез телеметрии. Не захватывает блокировку диспетчера
+     * и не задерживает прием вызовов, поэтому может вызываться часто.
+     */
+    public TelemetrySnapshot getSnapshot() {
+        List<TelemetrySnapshot.ElevatorState> states = new ArrayList<>();
+
+        for (Elevator elevator : elevators) {
+            states.add(new TelemetrySnapshot.ElevatorState(elevator));
+        }
+
+        return new TelemetrySnapshot(telemetry, states);
+    }
+
+    /**
+     * Регистрирует JMX-бины диспетчера и всех добавленных лифтов
+     * в платформенном MBean-сервере. Лифты, добавленные позже, регистрируются
+     * в {@link #addElevator(Elevator)}. Повторный вызов ничего не делает.
+     */
+    public void registerMBeans() {
+        synchronized (elevators) {
+            if (monitor != null) {
+                return;
+            }
+
+            TelemetryMonitor candidate = new TelemetryMonitor(this, telemetry);
+            try {
+                candidate.register(elevators);
+                monitor = candidate;
+            } catch (JMException e) {
+                System.out.println("[ERROR]: Не удалось зарегистрировать JMX-бины: " + e.getMessage());
+            }
+        }
+    }
+
+    public void showStatus() {
+        TelemetrySnapshot snapshot = getSnapshot();
+
+        System.out.println("\n\\/\\/\\/\\ СТАТУС \\/\\/\\/\\");
+        System.out.println("[i] Вызовов в очереди: " + snapshot.getQueueDepth());
+        System.out.printf("[i] Запросов: %d (объединено: %d, ожидают лифт: %d), за минуту: %.1f%n",
+                snapshot.getRequests(), snapshot.getCoalescedRequests(), snapshot.getUnservedRequests(),
+                snapshot.getRequestsPerMinute());
+        System.out.printf("[i] Среднее время ожидания лифта: %.1f с (p50 %.1f с, p90 %.1f с, p99 %.1f с)%n",
+                snapshot.getAverageWaitSeconds(), snapshot.getWaitP50Seconds(),
+                snapshot.getWaitP90Seconds(), snapshot.getWaitP99Seconds());
+
+        for (TelemetrySnapshot.ElevatorState elevator : snapshot.getElevators()) {
+            System.out.println("Лифт #" + elevator.getId() +
+                    " на " + elevator.getCurrentFloor() +
+                    " этаже, " + elevator.getStatus());
+        }
+        System.out.println("\\/\\/\\/\\\n");
+    }
+
+    public int getQueueSize() {
+        return telemetry.getQueueDepth();
+    }
 }
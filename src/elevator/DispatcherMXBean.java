@@ -0,0 +1,40 @@
+package elevator;
+
+import java.util.List;
+
+/**
+ * JMX-интерфейс для наблюдения за диспетчером.
+ * <p>
+ * Регистрируется под именем {@code elevator:type=Dispatcher} методом
+ * {@link Dispatcher#registerMBeans()}. Все значения читаются из атомарных счетчиков
+ * и не требуют блокировки диспетчера.
+ * </p>
+ *
+ * @see Dispatcher
+ * @see Telemetry
+ */
+public interface DispatcherMXBean {
+    int getQueueDepth();
+
+    long getRequests();
+
+    long getHallCalls();
+
+    long getCoalescedRequests();
+
+    long getPickups();
+
+    long getUnservedRequests();
+
+    double getRequestsPerMinute();
+
+    double getAverageWaitSeconds();
+
+    double getWaitP50Seconds();
+
+    double getWaitP90Seconds();
+
+    double getWaitP99Seconds();
+
+    List<TelemetrySnapshot.ElevatorState> getElevators();
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.List;
+import java.util.function.LongSupplier;
 
 /**
  * Класс, представляющий лифт в системе управления лифтами.
@@ -19,6 +20,8 @@ import java.util.List;
  *   <li>Остановка на заданных этажах для посадки/высадки пассажиров</li>
  *   <li>Открытие/закрытие дверей с симуляцией задержек</li>
  *   <li>Управление очередью целевых этажей</li>
+ *   <li>Перемещение свободного лифта на этаж парковки без открытия дверей</li>
+ *   <li>Пошаговая работа без собственного потока для детерминированной симуляции ({@link Simulation})</li>
  *   <li>Потокобезопасное взаимодействие с диспетчером</li>
  * </ul>
  *
@@ -33,18 +36,45 @@ import java.util.List;
     private int id;
     private static int nextId = 1;
     private static int sizeFloors = 9;
-    private int currentFloor;
-    public Direction direction;
-    public Status status;
+    private volatile int currentFloor;
+    public volatile Direction direction;
+    public volatile Status status;
     public Set<Integer> floors;
     public List<Integer> passengers;
     private static final int MIN_FLOOR = 0;
     private static final int MAX_FLOOR = 9;
+    private static final long CYCLE_MILLIS = 1000;
+    private final int maxFloor;
+    private final long cycleMillis;
 
     private Thread elevatorThread;
     private volatile boolean running = true;
+    private volatile Integer parkingFloor;
+    private LongSupplier clock = System::currentTimeMillis;
+    private volatile long lastActive = System.currentTimeMillis();
+    private int doorCycles;
+    private int doorFloor;
+    private volatile long runMillis;
+    private volatile long busyMillis;
+    private volatile long stops;
+    private volatile long floorsTravelled;
+    private Dispatcher dispatcher;
 
     public Elevator() {
+        this(MAX_FLOOR, CYCLE_MILLIS);
+    }
+
+    /**
+     * @param maxFloor    верхний этаж здания (нижний всегда {@value #MIN_FLOOR})
+     * @param cycleMillis длительность одного шага лифта (проезд одного этажа);
+     *                    открытие и закрытие дверей занимает два шага
+     */
+    public Elevator(int maxFloor, long cycleMillis) {
+        if (maxFloor <= MIN_FLOOR) {
+            throw new IllegalArgumentException("[ERROR]: верхний этаж должен быть больше " + MIN_FLOOR);
+        }
+        this.maxFloor = maxFloor;
+        this.cycleMillis = cycleMillis;
         this.id = nextId++;
         this.currentFloor = 1;
         direction = Direction.NO_ACTIVE;
@@ -73,6 +103,43 @@ import java.util.List;
         return id;
     }
 
+    public Integer getParkingFloor() {
+        return parkingFloor;
+    }
+
+    /**
+     * Лифт свободен: нет ни вызовов, ни этажа парковки, и он стоит на месте.
+     */
+    public boolean isIdle() {
+        return floors.isEmpty() && parkingFloor == null && status == Status.STOPPED;
+    }
+
+    public long getIdleMillis() {
+        return isIdle() ? clock.getAsLong() - lastActive : 0;
+    }
+
+    public long getStops() {
+        return stops;
+    }
+
+    public long getFloorsTravelled() {
+        return floorsTravelled;
+    }
+
+    /**
+     * Доля времени работы, в течение которого лифт ехал или обслуживал этаж.
+     */
+    public double getUtilization() {
+        long total = runMillis;
+        return total == 0 ? 0 : (double) busyMillis / total;
+    }
+
+    void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.clock = dispatcher::currentTimeMillis;
+        this.lastActive = clock.getAsLong();
+    }
+
 
     public void start() {
         elevatorThread = new Thread(this, "Elevator-" + id);
@@ -88,38 +155,60 @@ import java.util.List;
     }
 
     public void callToFloor(int floor) {
-        if (floor < MIN_FLOOR || floor > MAX_FLOOR) {
+        if (floor < MIN_FLOOR || floor > maxFloor) {
             System.out.println("[ERROR]: Этаж " + floor + " не существует (диапазон: "
-                    + MIN_FLOOR + "-" + MAX_FLOOR + ")");
+                    + MIN_FLOOR + "-" + maxFloor + ")");
             return;
         }
         synchronized (this) {
             floors.add(floor);
+            parkingFloor = null;
             System.out.println("Лифт #" + id + " вызван на этаж " + floor);
             notify();
         }
     }
 
     public void addTargetFloor(int floor) {
-        if (floor < MIN_FLOOR || floor > MAX_FLOOR) {
+        if (floor < MIN_FLOOR || floor > maxFloor) {
             System.out.println("[ERROR]: Целевой этаж " + floor + " не существует (диапазон: "
-                    + MIN_FLOOR + "-" + MAX_FLOOR + ")");
+                    + MIN_FLOOR + "-" + maxFloor + ")");
             return;
         }
         synchronized (this) {
             floors.add(floor);
+            parkingFloor = null;
             System.out.println("Лифт #" + id + " получил цель: этаж " + floor);
             notify();
         }
     }
 
+    /**
+     * Отправляет свободный лифт на этаж парковки. Лифт едет туда без остановок
+     * и без открытия дверей; любой новый вызов отменяет парковку.
+     */
+    public void parkAt(int floor) {
+        if (floor < MIN_FLOOR || floor > maxFloor) {
+            System.out.println("[ERROR]: Этаж парковки " + floor + " не существует (диапазон: "
+                    + MIN_FLOOR + "-" + maxFloor + ")");
+            return;
+        }
+        synchronized (this) {
+            if (!floors.isEmpty() || floor == currentFloor) {
+                return;
+            }
+            parkingFloor = floor;
+            System.out.println("Лифт #" + id + " направлен на парковку: этаж " + floor);
+            notify();
+        }
+    }
 
     public void moveUp() {
-        if (this.currentFloor >= MAX_FLOOR) {  // Было == sizeFloors-1 // для улучшение теперь константа
+        if (this.currentFloor >= maxFloor) {  // Было == sizeFloors-1 // для улучшение теперь константа
             System.out.println("[ERROR]: Лифт не может подняться вверх (уже на максимальном этаже)..");
             return;
         }
         this.currentFloor++;
+        floorsTravelled++;
         direction = Direction.UP;
         status = Status.MOVING;
         System.out.println("[!] Лифт #"+id+" поднялся на этаж "+currentFloor);
@@ -131,6 +220,7 @@ import java.util.List;
             return;
         }
         this.currentFloor--;
+        floorsTravelled++;
         direction = Direction.DOWN;
         status = Status.MOVING;
         System.out.println("[!] Лифт #"+id+" опустился на этаж "+currentFloor);
@@ -159,8 +249,11 @@ import java.util.List;
 
         while (running) {
             try {
-                performCycle();
-                Thread.sleep(1000);
+                long cycleStart = clock.getAsLong();
+                boolean busy = performCycle();
+                Thread.sleep(cycleMillis);
+
+                account(busy, clock.getAsLong() - cycleStart);
 
             } catch (InterruptedException e) {
                 System.out.println("Лифт #" + id + " остановлен");
@@ -169,15 +262,65 @@ import java.util.List;
         }
     }
 
-    private void performCycle() {
+    /**
+     * Выполняет один шаг лифта без ожидания. Используется {@link Simulation},
+     * где время шага отсчитывают модельные часы, а не поток лифта.
+     */
+    void step() {
+        account(performCycle(), cycleMillis);
+    }
+
+    private void account(boolean busy, long elapsed) {
+        runMillis += elapsed;
+        if (busy) {
+            busyMillis += elapsed;
+        }
+    }
+
+    private boolean performCycle() {
+        if (doorCycles > 0) {
+            if (--doorCycles == 0) {
+                closeDoors();
+
+                // пассажиры, назначенные на этот этаж, пока двери были открыты, тоже сели
+                if (dispatcher != null) {
+                    dispatcher.elevatorDeparted(this, doorFloor);
+                }
+                floors.remove(doorFloor);
+                lastActive = clock.getAsLong();
+
+                System.out.println("Лифт #" + id + " покинул этаж " + doorFloor);
+            }
+            return true;
+        }
+
         if (floors.isEmpty()) {
+            Integer parking = parkingFloor;
+
+            if (parking != null) {
+                lastActive = clock.getAsLong();
+
+                if (parking > currentFloor) {
+                    moveUp();
+                } else if (parking < currentFloor) {
+                    moveDown();
+                }
+
+                if (currentFloor == parking) {
+                    parkingFloor = null;
+                    moveStop();
+                }
+                return true;
+            }
 
             if (status != Status.STOPPED || direction != Direction.NO_ACTIVE) {
                 moveStop();
             }
-            return;
+            return false;
         }
 
+        lastActive = clock.getAsLong();
+
         Integer target = getNextTarget();
         if (target != null) {
             if (target > currentFloor) {
@@ -190,6 +333,7 @@ import java.util.List;
                 handleArrival(target);
             }
         }
+        return true;
     }
 
     private Integer getNextTarget() {
@@ -209,21 +353,19 @@ import java.util.List;
     }
 
     private void handleArrival(int floor) {
+        stops++;
         moveStop();
         openDoors();
 
-        System.out.println("Лифт #" + id + " на этаже " + floor +
-                ": пассажиры выходят/заходят");
-
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (dispatcher != null) {
+            dispatcher.elevatorArrived(this, floor);
         }
 
-        closeDoors();
-        floors.remove(floor);
+        System.out.println("Лифт #" + id + " на этаже " + floor +
+                ": пассажиры выходят/заходят");
 
-        System.out.println("Лифт #" + id + " покинул этаж " + floor);
+        // двери остаются открытыми два шага, закрываются в начале третьего
+        doorFloor = floor;
+        doorCycles = 2;
     }
 }
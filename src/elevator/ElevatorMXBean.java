@@ -0,0 +1,30 @@
+package elevator;
+
+/**
+ * JMX-интерфейс для наблюдения за отдельным лифтом.
+ * <p>
+ * Регистрируется под именем {@code elevator:type=Elevator,id=<номер лифта>}
+ * методом {@link Dispatcher#registerMBeans()}.
+ * </p>
+ *
+ * @see Elevator
+ */
+public interface ElevatorMXBean {
+    int getId();
+
+    int getCurrentFloor();
+
+    String getStatus();
+
+    String getDirection();
+
+    int getPendingStops();
+
+    Integer getParkingFloor();
+
+    long getStops();
+
+    long getFloorsTravelled();
+
+    double getUtilization();
+}
@@ -0,0 +1,90 @@
+package elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Класс HallCall представляет вызов лифта с этажа (кнопка в холле), в котором
+ * объединены все ожидающие запросы пассажиров с одинаковым этажом вызова и направлением.
+ *
+ * <p>Пока вызов находится в очереди диспетчера, новые запросы с тем же этажом
+ * и направлением не создают отдельного вызова, а добавляются к существующему.
+ * Благодаря этому диспетчер выполняет один проход оценки лифтов на весь вызов.
+ *
+ * @see Dispatcher
+ * @see PassengerRequest
+ * @see Direction
+ */
+class HallCall {
+    private final int floorCall;
+    private final Direction direction;
+    private final long createdAt;
+    private final List<PassengerRequest> requests;
+
+    HallCall(PassengerRequest request) {
+        this.floorCall = request.getFloorCall();
+        this.direction = request.getDirection();
+        this.createdAt = request.getTimeOfCreating();
+        this.requests = new ArrayList<>();
+        this.requests.add(request);
+    }
+
+    static int key(int floorCall, Direction direction) {
+        return floorCall * 2 + (direction == Direction.UP ? 1 : 0);
+    }
+
+    int key() {
+        return key(floorCall, direction);
+    }
+
+    void add(PassengerRequest request) {
+        requests.add(request);
+    }
+
+    int getFloorCall() {
+        return floorCall;
+    }
+
+    Direction getDirection() {
+        return direction;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    List<PassengerRequest> getRequests() {
+        return requests;
+    }
+
+    /**
+     * Группирует целевые этажи вызова: в одну группу, которую обслуживает один лифт,
+     * попадают этажи, отстоящие от нижнего этажа группы не больше чем на {@code maxGap}.
+     */
+    List<Set<Integer>> groupTargets(int maxGap) {
+        TreeSet<Integer> targets = new TreeSet<>();
+        for (PassengerRequest request : requests) {
+            targets.add(request.getFloorTarget());
+        }
+
+        List<Set<Integer>> groups = new ArrayList<>();
+        TreeSet<Integer> group = null;
+
+        for (int floor : targets) {
+            if (group == null || floor - group.first() > maxGap) {
+                group = new TreeSet<>();
+                groups.add(group);
+            }
+            group.add(floor);
+        }
+
+        return groups;
+    }
+
+    @Override
+    public String toString() {
+        return "этаж " + floorCall + " " + direction + " (" + requests.size() + " пасс.)";
+    }
+}
@@ -22,6 +22,10 @@ package elevator;
     private long timeOfCreating;
 
     public PassengerRequest(int floorCall, int floorTarget) {
+        this(floorCall, floorTarget, System.currentTimeMillis());
+    }
+
+    PassengerRequest(int floorCall, int floorTarget, long timeOfCreating) {
 
         if (floorCall == floorTarget) {
             throw new IllegalArgumentException("[ERROR}: нельзя, чтобы этажи совпали..");
@@ -29,7 +33,7 @@ package elevator;
 
         this.floorCall = floorCall;
         this.floorTarget = floorTarget;
-        this.timeOfCreating = System.currentTimeMillis();
+        this.timeOfCreating = timeOfCreating;
     }
 
     public int getFloorCall() {
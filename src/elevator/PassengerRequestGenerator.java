@@ -12,6 +12,7 @@ import java.util.Random;
  *   <li>Автоматическая генерация запросов с случайными этажами вызова и назначения</li>
  *   <li>Работа в фоновом потоке с настраиваемой частотой генерации</li>
  *   <li>Возможность генерации пакета запросов по требованию</li>
+ *   <li>Несколько видов потока пассажиров ({@link Traffic}): равномерный, утренний и вечерний час пик</li>
  *   <li>Интеграция с {@link Dispatcher} для передачи сгенерированных запросов</li>
  * </ul>
  *
@@ -22,7 +23,9 @@ import java.util.Random;
  */
  public class PassengerRequestGenerator implements Runnable {
     private final Dispatcher dispatcher;
-    private final Random random = new Random();
+    private final Random random;
+    private final int maxFloor;
+    private final Traffic traffic;
     private volatile boolean running = true;
     private Thread generatorThread;
 
@@ -30,9 +33,53 @@ import java.util.Random;
     private static final int MAX_FLOOR = 9;
     private static final int MIN_INTERVAL = 2000;
     private static final int MAX_INTERVAL = 8000;
+    private static final double PEAK_SHARE = 0.8;
+
+    /**
+     * Вид потока пассажиров.
+     */
+    public enum Traffic {
+        /**
+         * этажи вызова и назначения выбираются равновероятно
+         */
+        UNIFORM,
+
+        /**
+         * утренний час пик: большинство пассажиров едет из холла вверх
+         */
+        UP_PEAK,
+
+        /**
+         * вечерний час пик: большинство пассажиров едет вниз в холл
+         */
+        DOWN_PEAK
+    }
 
     public PassengerRequestGenerator(Dispatcher dispatcher) {
+        this(dispatcher, new Random(), MAX_FLOOR, Traffic.UNIFORM);
+    }
+
+    /**
+     * Генератор с фиксированным зерном: одинаковое зерно дает одинаковую
+     * последовательность запросов, что позволяет сравнивать режимы работы диспетчера.
+     */
+    public PassengerRequestGenerator(Dispatcher dispatcher, long seed) {
+        this(dispatcher, new Random(seed), MAX_FLOOR, Traffic.UNIFORM);
+    }
+
+    /**
+     * @param maxFloor верхний этаж здания
+     * @param traffic  вид потока пассажиров
+     */
+    public PassengerRequestGenerator(Dispatcher dispatcher, long seed, int maxFloor, Traffic traffic) {
+        this(dispatcher, new Random(seed), maxFloor, traffic);
+    }
+
+    private PassengerRequestGenerator(Dispatcher dispatcher, Random random, int maxFloor, Traffic traffic) {
         this.dispatcher = dispatcher;
+        this.random = random;
+        this.maxFloor = maxFloor;
+        this.traffic = traffic;
     }
 
     public void start() {
@@ -54,15 +101,11 @@ import java.util.Random;
         while (running) {
             try {
 
-                int delay = MIN_INTERVAL + random.nextInt(MAX_INTERVAL - MIN_INTERVAL);
-                Thread.sleep(delay);
-
-                int fromFloor, toFloor;
+                Thread.sleep(nextDelayMillis());
 
-                do {
-                    fromFloor = MIN_FLOOR + random.nextInt(MAX_FLOOR - MIN_FLOOR + 1);
-                    toFloor = MIN_FLOOR + random.nextInt(MAX_FLOOR - MIN_FLOOR + 1);
-                } while (fromFloor == toFloor);
+                int[] floors = nextFloors();
+                int fromFloor = floors[0];
+                int toFloor = floors[1];
 
                 System.out.println("[i] Поступил запрос #" + requestId + " с " + fromFloor + " на " + toFloor);
                 dispatcher.callElevator(fromFloor, toFloor);
@@ -78,14 +121,9 @@ import java.util.Random;
     public void generateBatch(int count) {
 
         for (int i = 0; i < count; i++) {
-            int fromFloor, toFloor;
+            int[] floors = nextFloors();
 
-            do {
-                fromFloor = MIN_FLOOR + random.nextInt(MAX_FLOOR - MIN_FLOOR + 1);
-                toFloor = MIN_FLOOR + random.nextInt(MAX_FLOOR - MIN_FLOOR + 1);
-            } while (fromFloor == toFloor);
-
-            dispatcher.callElevator(fromFloor, toFloor);
+            dispatcher.callElevator(floors[0], floors[1]);
 
             try {
                 Thread.sleep(500);
@@ -95,4 +133,35 @@ import java.util.Random;
             }
         }
     }
+
+    /**
+     * Интервал до следующего запроса в миллисекундах.
+     */
+    long nextDelayMillis() {
+        return MIN_INTERVAL + random.nextInt(MAX_INTERVAL - MIN_INTERVAL);
+    }
+
+    /**
+     * Этажи вызова и назначения следующего запроса: {@code {откуда, куда}}.
+     */
+    int[] nextFloors() {
+        int fromFloor, toFloor;
+
+        do {
+            fromFloor = randomFloor();
+            toFloor = randomFloor();
+
+            if (traffic == Traffic.UP_PEAK && random.nextDouble() < PEAK_SHARE) {
+                fromFloor = MIN_FLOOR;
+            } else if (traffic == Traffic.DOWN_PEAK && random.nextDouble() < PEAK_SHARE) {
+                toFloor = MIN_FLOOR;
+            }
+        } while (fromFloor == toFloor);
+
+        return new int[]{fromFloor, toFloor};
+    }
+
+    private int randomFloor() {
+        return MIN_FLOOR + random.nextInt(maxFloor - MIN_FLOOR + 1);
+    }
 }
@@ -0,0 +1,120 @@
+package elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Класс Simulation выполняет работу лифтовой системы по модельным часам, без потоков и ожиданий.
+ *
+ * <p>Время продвигается шагами по {@value #TICK_MILLIS} мс. На каждом шаге:
+ * <ol>
+ *   <li>диспетчеру передаются все запросы пассажиров, время которых наступило</li>
+ *   <li>диспетчер обрабатывает вызовы в очереди и паркует свободные лифты</li>
+ *   <li>раз в {@value #CYCLE_MILLIS} мс каждый лифт делает один шаг</li>
+ * </ol>
+ *
+ * <p>Поскольку порядок событий задается только модельным временем, одинаковые параметры
+ * и зерно генератора всегда дают одинаковый результат, а симуляция часа работы здания
+ * занимает доли секунды.
+ *
+ * @see Dispatcher
+ * @see Elevator
+ * @see PassengerRequestGenerator
+ */
+public class Simulation {
+    private static final long TICK_MILLIS = 100;
+    private static final long CYCLE_MILLIS = 1000;
+
+    private final int maxFloor;
+    private final Dispatcher dispatcher;
+    private final List<Elevator> elevators;
+    private final PriorityQueue<long[]> scheduledCalls;
+    private PassengerRequestGenerator generator;
+    private long nextGeneratedCall;
+    private long now;
+
+    public Simulation(int maxFloor, int elevatorCount) {
+        this.maxFloor = maxFloor;
+        this.dispatcher = new Dispatcher(maxFloor, () -> now);
+        this.elevators = new ArrayList<>();
+        this.scheduledCalls = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[3], b[3]));
+
+        for (int i = 0; i < elevatorCount; i++) {
+            Elevator elevator = new Elevator(maxFloor, CYCLE_MILLIS);
+            elevators.add(elevator);
+            dispatcher.addElevator(elevator);
+        }
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Включает генератор запросов с заданным видом потока и зерном.
+     */
+    public void useGenerator(PassengerRequestGenerator.Traffic traffic, long seed) {
+        generator = new PassengerRequestGenerator(dispatcher, seed, maxFloor, traffic);
+        nextGeneratedCall = now + generator.nextDelayMillis();
+    }
+
+    /**
+     * Планирует вызов лифта на момент {@code timeMillis} модельного времени.
+     */
+    public void scheduleCall(long timeMillis, int floorCall, int floorTarget) {
+        scheduledCalls.add(new long[]{timeMillis, floorCall, floorTarget, scheduledCalls.size()});
+    }
+
+    /**
+     * Продвигает модельное время на {@code durationMillis} и возвращает срез телеметрии.
+     */
+    public TelemetrySnapshot run(long durationMillis) {
+        long end = now + durationMillis;
+
+        for (; now < end; now += TICK_MILLIS) {
+            tick(true);
+        }
+
+        return dispatcher.getSnapshot();
+    }
+
+    /**
+     * Продолжает симуляцию без новых запросов, пока все ожидающие пассажиры не будут
+     * забраны, но не дольше {@code maxMillis}. Оставшиеся пассажиры видны
+     * в {@link TelemetrySnapshot#getUnservedRequests()}.
+     *
+     * @return модельное время, затраченное на дообслуживание, в миллисекундах
+     */
+    public long drain(long maxMillis) {
+        long start = now;
+        long end = now + maxMillis;
+
+        for (; now < end && dispatcher.getUnservedRequests() > 0; now += TICK_MILLIS) {
+            tick(false);
+        }
+
+        return now - start;
+    }
+
+    private void tick(boolean arrivals) {
+        while (arrivals && !scheduledCalls.isEmpty() && scheduledCalls.peek()[0] <= now) {
+            long[] call = scheduledCalls.poll();
+            dispatcher.callElevator((int) call[1], (int) call[2]);
+        }
+
+        while (arrivals && generator != null && nextGeneratedCall <= now) {
+            int[] floors = generator.nextFloors();
+            dispatcher.callElevator(floors[0], floors[1]);
+            nextGeneratedCall += generator.nextDelayMillis();
+        }
+
+        dispatcher.step();
+
+        if (now % CYCLE_MILLIS == 0) {
+            for (Elevator elevator : elevators) {
+                elevator.step();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package elevator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Класс Telemetry собирает показатели работы диспетчера без блокировок.
+ *
+ * <p>Все счетчики построены на атомарных типах, поэтому запись из потока диспетчера
+ * и лифтов и чтение из мониторинга (JMX, {@link TelemetrySnapshot}) никогда
+ * не ожидают друг друга и не задерживают обработку вызовов.
+ *
+ * <p>Собираемые показатели:
+ * <ul>
+ *   <li>количество запросов пассажиров, вызовов с этажа и объединенных запросов</li>
+ *   <li>текущая длина очереди вызовов</li>
+ *   <li>интенсивность запросов за последнюю минуту</li>
+ *   <li>гистограмма времени ожидания лифта (шаг 10 мс) для расчета перцентилей</li>
+ * </ul>
+ *
+ * @see Dispatcher
+ * @see TelemetrySnapshot
+ */
+class Telemetry {
+    private static final int RATE_WINDOW_SECONDS = 60;
+    private static final int WAIT_BUCKET_MILLIS = 10;
+    private static final int WAIT_BUCKETS = 12000;
+
+    private final LongSupplier clock;
+    private final long startTime;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hallCalls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder pickups = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLongArray rateCounts = new AtomicLongArray(RATE_WINDOW_SECONDS);
+    private final AtomicLongArray rateSeconds = new AtomicLongArray(RATE_WINDOW_SECONDS);
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_BUCKETS + 1);
+
+    Telemetry(LongSupplier clock) {
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+    }
+
+    long currentTimeMillis() {
+        return clock.getAsLong();
+    }
+
+    void requestReceived(long timeMillis) {
+        requests.increment();
+
+        long second = timeMillis / 1000;
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        long slotSecond = rateSeconds.get(slot);
+
+        if (slotSecond != second && rateSeconds.compareAndSet(slot, slotSecond, second)) {
+            rateCounts.set(slot, 0);
+        }
+        rateCounts.incrementAndGet(slot);
+    }
+
+    void hallCallQueued() {
+        hallCalls.increment();
+        queueDepth.incrementAndGet();
+    }
+
+    void hallCallCoalesced() {
+        coalesced.increment();
+    }
+
+    void hallCallTaken() {
+        queueDepth.decrementAndGet();
+    }
+
+    void pickedUp(long waitMillis) {
+        pickups.increment();
+        totalWaitMillis.add(waitMillis);
+        waitHistogram.incrementAndGet((int) Math.min(WAIT_BUCKETS, Math.max(0, waitMillis) / WAIT_BUCKET_MILLIS));
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getHallCalls() {
+        return hallCalls.sum();
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    long getPickups() {
+        return pickups.sum();
+    }
+
+    int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    double getAverageWaitSeconds() {
+        long count = pickups.sum();
+        return count == 0 ? 0 : totalWaitMillis.sum() / 1000.0 / count;
+    }
+
+    /**
+     * Количество запросов пассажиров за последние {@value #RATE_WINDOW_SECONDS} секунд.
+     */
+    double getRequestsPerMinute(long timeMillis) {
+        long second = timeMillis / 1000;
+        long count = 0;
+
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            long slotSecond = rateSeconds.get(i);
+            if (slotSecond <= second && second - slotSecond < RATE_WINDOW_SECONDS) {
+                count += rateCounts.get(i);
+            }
+        }
+
+        return count * 60.0 / RATE_WINDOW_SECONDS;
+    }
+
+    /**
+     * Перцентиль времени ожидания в секундах. Внутри интервала гистограммы значение
+     * интерполируется линейно, считая ожидания распределенными по интервалу равномерно.
+     */
+    double getWaitPercentileSeconds(double percentile) {
+        long[] counts = new long[waitHistogram.length()];
+        long total = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = waitHistogram.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            if (seen + counts[i] >= rank) {
+                double position = i + (double) (rank - seen) / counts[i];
+                return position * WAIT_BUCKET_MILLIS / 1000.0;
+            }
+            seen += counts[i];
+        }
+
+        return counts.length * WAIT_BUCKET_MILLIS / 1000.0;
+    }
+}
@@ -0,0 +1,160 @@
+package elevator;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Класс TelemetryMonitor публикует телеметрию диспетчера и лифтов через JMX.
+ *
+ * <p>Реализует {@link DispatcherMXBean} поверх {@link Telemetry} и регистрирует
+ * для каждого лифта отдельный {@link ElevatorMXBean}, в том числе для лифтов,
+ * добавленных после регистрации. Все методы только читают
+ * атомарные счетчики и поля лифтов и не захватывают блокировку диспетчера.
+ *
+ * @see Dispatcher#registerMBeans()
+ */
+class TelemetryMonitor implements DispatcherMXBean {
+    private final Dispatcher dispatcher;
+    private final Telemetry telemetry;
+
+    TelemetryMonitor(Dispatcher dispatcher, Telemetry telemetry) {
+        this.dispatcher = dispatcher;
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Регистрирует бин диспетчера и бины уже добавленных лифтов. Если имя уже занято
+     * (например, бинами другого диспетчера в той же JVM), выбрасывает
+     * {@link javax.management.InstanceAlreadyExistsException} и чужой бин не трогает.
+     */
+    void register(List<Elevator> elevators) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        server.registerMBean(this, new ObjectName("elevator:type=Dispatcher"));
+
+        for (Elevator elevator : elevators) {
+            registerElevator(elevator);
+        }
+    }
+
+    void registerElevator(Elevator elevator) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new ElevatorMonitor(elevator),
+                new ObjectName("elevator:type=Elevator,id=" + elevator.getId()));
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return telemetry.getQueueDepth();
+    }
+
+    @Override
+    public long getRequests() {
+        return telemetry.getRequests();
+    }
+
+    @Override
+    public long getHallCalls() {
+        return telemetry.getHallCalls();
+    }
+
+    @Override
+    public long getCoalescedRequests() {
+        return telemetry.getCoalesced();
+    }
+
+    @Override
+    public long getPickups() {
+        return telemetry.getPickups();
+    }
+
+    @Override
+    public long getUnservedRequests() {
+        return Math.max(0, telemetry.getRequests() - telemetry.getPickups());
+    }
+
+    @Override
+    public double getRequestsPerMinute() {
+        return telemetry.getRequestsPerMinute(telemetry.currentTimeMillis());
+    }
+
+    @Override
+    public double getAverageWaitSeconds() {
+        return telemetry.getAverageWaitSeconds();
+    }
+
+    @Override
+    public double getWaitP50Seconds() {
+        return telemetry.getWaitPercentileSeconds(50);
+    }
+
+    @Override
+    public double getWaitP90Seconds() {
+        return telemetry.getWaitPercentileSeconds(90);
+    }
+
+    @Override
+    public double getWaitP99Seconds() {
+        return telemetry.getWaitPercentileSeconds(99);
+    }
+
+    @Override
+    public List<TelemetrySnapshot.ElevatorState> getElevators() {
+        return dispatcher.getSnapshot().getElevators();
+    }
+
+    private static class ElevatorMonitor implements ElevatorMXBean {
+        private final Elevator elevator;
+
+        ElevatorMonitor(Elevator elevator) {
+            this.elevator = elevator;
+        }
+
+        @Override
+        public int getId() {
+            return elevator.getId();
+        }
+
+        @Override
+        public int getCurrentFloor() {
+            return elevator.getCurrentFloor();
+        }
+
+        @Override
+        public String getStatus() {
+            return elevator.getStatus().name();
+        }
+
+        @Override
+        public String getDirection() {
+            return elevator.getDirection().name();
+        }
+
+        @Override
+        public int getPendingStops() {
+            return elevator.getFloors().size();
+        }
+
+        @Override
+        public Integer getParkingFloor() {
+            return elevator.getParkingFloor();
+        }
+
+        @Override
+        public long getStops() {
+            return elevator.getStops();
+        }
+
+        @Override
+        public long getFloorsTravelled() {
+            return elevator.getFloorsTravelled();
+        }
+
+        @Override
+        public double getUtilization() {
+            return elevator.getUtilization();
+        }
+    }
+}
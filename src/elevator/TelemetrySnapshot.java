@@ -0,0 +1,172 @@
+package elevator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Класс TelemetrySnapshot представляет неизменяемый срез состояния лифтовой системы
+ * на момент {@link #getTimestamp()}.
+ *
+ * <p>Срез собирается из атомарных счетчиков {@link Telemetry} и полей лифтов
+ * без захвата блокировки диспетчера, поэтому его можно запрашивать сколь угодно часто.
+ * Значения разных полей читаются не одновременно и могут немного расходиться между собой.
+ *
+ * @see Dispatcher#getSnapshot()
+ * @see Telemetry
+ */
+public final class TelemetrySnapshot {
+    private final long timestamp;
+    private final long uptimeMillis;
+    private final int queueDepth;
+    private final long requests;
+    private final long hallCalls;
+    private final long coalescedRequests;
+    private final long pickups;
+    private final long unservedRequests;
+    private final double requestsPerMinute;
+    private final double averageWaitSeconds;
+    private final double waitP50Seconds;
+    private final double waitP90Seconds;
+    private final double waitP99Seconds;
+    private final List<ElevatorState> elevators;
+
+    TelemetrySnapshot(Telemetry telemetry, List<ElevatorState> elevators) {
+        this.timestamp = telemetry.currentTimeMillis();
+        this.uptimeMillis = timestamp - telemetry.getStartTime();
+        this.queueDepth = telemetry.getQueueDepth();
+        this.requests = telemetry.getRequests();
+        this.hallCalls = telemetry.getHallCalls();
+        this.coalescedRequests = telemetry.getCoalesced();
+        this.pickups = telemetry.getPickups();
+        this.unservedRequests = Math.max(0, requests - pickups);
+        this.requestsPerMinute = telemetry.getRequestsPerMinute(timestamp);
+        this.averageWaitSeconds = telemetry.getAverageWaitSeconds();
+        this.waitP50Seconds = telemetry.getWaitPercentileSeconds(50);
+        this.waitP90Seconds = telemetry.getWaitPercentileSeconds(90);
+        this.waitP99Seconds = telemetry.getWaitPercentileSeconds(99);
+        this.elevators = Collections.unmodifiableList(elevators);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getUptimeMillis() {
+        return uptimeMillis;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getHallCalls() {
+        return hallCalls;
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    public long getPickups() {
+        return pickups;
+    }
+
+    /**
+     * Запросы пассажиров, которых лифт еще не забрал. Их ожидание не входит
+     * в среднее время и перцентили, пока лифт не прибудет.
+     */
+    public long getUnservedRequests() {
+        return unservedRequests;
+    }
+
+    public double getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public double getAverageWaitSeconds() {
+        return averageWaitSeconds;
+    }
+
+    public double getWaitP50Seconds() {
+        return waitP50Seconds;
+    }
+
+    public double getWaitP90Seconds() {
+        return waitP90Seconds;
+    }
+
+    public double getWaitP99Seconds() {
+        return waitP99Seconds;
+    }
+
+    public List<ElevatorState> getElevators() {
+        return elevators;
+    }
+
+    /**
+     * Состояние одного лифта в срезе телеметрии.
+     */
+    public static final class ElevatorState {
+        private final int id;
+        private final int currentFloor;
+        private final String status;
+        private final String direction;
+        private final int pendingStops;
+        private final Integer parkingFloor;
+        private final long stops;
+        private final long floorsTravelled;
+        private final double utilization;
+
+        ElevatorState(Elevator elevator) {
+            this.id = elevator.getId();
+            this.currentFloor = elevator.getCurrentFloor();
+            this.status = elevator.getStatus().name();
+            this.direction = elevator.getDirection().name();
+            this.pendingStops = elevator.getFloors().size();
+            this.parkingFloor = elevator.getParkingFloor();
+            this.stops = elevator.getStops();
+            this.floorsTravelled = elevator.getFloorsTravelled();
+            this.utilization = elevator.getUtilization();
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getCurrentFloor() {
+            return currentFloor;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public int getPendingStops() {
+            return pendingStops;
+        }
+
+        public Integer getParkingFloor() {
+            return parkingFloor;
+        }
+
+        public long getStops() {
+            return stops;
+        }
+
+        public long getFloorsTravelled() {
+            return floorsTravelled;
+        }
+
+        public double getUtilization() {
+            return utilization;
+        }
+    }
+}